@@ -0,0 +1,94 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for compare-threads.sh, run from source with {@code java LoadGenerator.java}.
+ * Each connection is a virtual thread that sends its next request as soon as the previous answer arrives.
+ * With a body argument the requests are POSTs; {@code %d} in the body is replaced by a unique number.
+ *
+ * <p>Prints one line: requests per second, p99 latency in milliseconds and the number of responses
+ * that were not 2xx/3xx, failed connections included.
+ *
+ * <p>Usage: {@code java LoadGenerator.java <url> <connections> <seconds> [body]}
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        int connections = Integer.parseInt(args[1]);
+        long durationNanos = Duration.ofSeconds(Long.parseLong(args[2])).toNanos();
+        String body = args.length > 3 ? args[3] : null;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[connections][];
+        int[] counts = new int[connections];
+        long deadline = System.nanoTime() + durationNanos;
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < connections; i++) {
+                int worker = i;
+                workers.execute(() -> {
+                    long[] own = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = request(uri, body, sequence);
+                        long start = System.nanoTime();
+                        try {
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception exception) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == own.length) {
+                            own = Arrays.copyOf(own, count * 2);
+                        }
+                        own[count++] = System.nanoTime() - start;
+                    }
+                    latencies[worker] = own;
+                    counts[worker] = count;
+                });
+            }
+        }
+
+        // Задержки всех соединений в одном массиве для перцентиля
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < connections; i++) {
+            System.arraycopy(latencies[i], 0, all, offset, counts[i]);
+            offset += counts[i];
+        }
+        Arrays.sort(all);
+        double seconds = durationNanos / 1e9;
+        double p99 = total == 0 ? 0 : all[(int) Math.min(total - 1, Math.ceil(total * 0.99) - 1)] / 1e6;
+        System.out.printf("%.1f %.1fms %d%n", total / seconds, p99, errors.get());
+    }
+
+    private static HttpRequest request(URI uri, String body, AtomicLong sequence) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30));
+        if (body == null) {
+            return builder.GET().build();
+        }
+        String unique = body.replace("%d", Long.toString(sequence.incrementAndGet()));
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(unique))
+                .build();
+    }
+}
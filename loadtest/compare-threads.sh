@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+# Throughput and p99 latency with platform threads and with virtual threads
+# (spring.threads.virtual.enabled), same scenarios and same database.
+#
+# Needs: a JDK (the load comes from LoadGenerator.java), a built jar (./gradlew bootJar) and a database
+# configured in application.properties or passed in APP_ARGS. The POST scenario creates sounds, so use
+# a throwaway database.
+#
+# Usage: loadtest/compare-threads.sh [seconds] [connections]
+#   DURATION=60 CONNECTIONS=400 SOUND_ID=1 ALBUM_NAME=album-1 loadtest/compare-threads.sh
+set -euo pipefail
+
+DURATION=${1:-${DURATION:-60}}
+CONNECTIONS=${2:-${CONNECTIONS:-400}}
+PORT=${PORT:-8080}
+SOUND_ID=${SOUND_ID:-1}
+ALBUM_NAME=${ALBUM_NAME:-album-1}
+BASE="http://localhost:${PORT}"
+DIR=$(cd "$(dirname "$0")" && pwd)
+LOGS=${TMPDIR:-/tmp}
+JAR=${JAR:-$(ls "$DIR"/../build/libs/*.jar | grep -v -- '-plain' | head -n 1)}
+JAVA_OPTS=${JAVA_OPTS:-}
+APP_ARGS=${APP_ARGS:-}
+
+# Сценарии: имя и путь; create-sound отправляет POST с уникальным именем звука
+SCENARIOS=(
+    "sound-by-id /api/sounds/${SOUND_ID}"
+    "sounds-page /api/sounds?limit=50"
+    "sounds-by-album /api/sounds/by-album?albumName=${ALBUM_NAME}"
+    "create-sound /api/sounds"
+)
+
+start_app() {
+    # shellcheck disable=SC2086
+    java $JAVA_OPTS -jar "$JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$1" $APP_ARGS \
+        > "$LOGS/saveandsound-virtual-$1.log" 2>&1 &
+    APP_PID=$!
+    for _ in $(seq 1 120); do
+        if curl -sf "$BASE/actuator/health" > /dev/null; then return; fi
+        sleep 1
+    done
+    echo "Application did not start, see $LOGS/saveandsound-virtual-$1.log" >&2
+    exit 1
+}
+
+stop_app() {
+    kill "$APP_PID" 2> /dev/null || true
+    wait "$APP_PID" 2> /dev/null || true
+}
+trap stop_app EXIT
+
+load() {
+    java "$DIR/LoadGenerator.java" "$@"
+}
+
+# req/s, p99 и число ответов не 2xx/3xx (503 от ограничителя)
+run_scenario() {
+    local name=$1 path=$2 body=()
+    # Время запуска сценария и номер запроса из LoadGenerator: имена не повторяются между режимами
+    [[ $name == create-sound ]] && body=("{\"name\":\"load-$(date +%s%N)-%d\",\"text\":\"load test\"}")
+    read -r rps p99 errors <<< "$(load "$BASE$path" "$CONNECTIONS" "$DURATION" "${body[@]}")"
+    printf "%-16s %12s %10s %8s\n" "$name" "$rps" "$p99" "$errors"
+}
+
+printf "%-8s %-16s %12s %10s %8s\n" mode scenario req/s p99 non-2xx
+for virtual in false true; do
+    mode=$([[ $virtual == true ]] && echo virtual || echo platform)
+    start_app "$virtual"
+    # Прогрев JIT и кэшей, результат не учитывается
+    load "$BASE/api/sounds/${SOUND_ID}" "$CONNECTIONS" 10 > /dev/null
+    for scenario in "${SCENARIOS[@]}"; do
+        read -r name path <<< "$scenario"
+        printf "%-8s " "$mode"
+        run_scenario "$name" "$path"
+    done
+    stop_app
+done